@@ -0,0 +1,129 @@
+package com.frontline.demo.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * RecordDecoder.java
+ *
+ * Decodes the binary wire format written by {@link RecordEncoder} back
+ * into the list of dash-prefixed lines shown on the conversion page.
+ * The line style in the header says whether the lines came from
+ * Record.getHierarchy(), where every line has a space after the
+ * dashes, or from InputConverter.convertInput(), where depth 0 lines
+ * have no leading space, so the lines are rebuilt exactly.
+ */
+public class RecordDecoder {
+
+    private final byte[] bytes;
+    private int pos = 0;
+
+    private RecordDecoder(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Decodes an encoded conversion result.
+     *
+     * @param bytes
+     * @return the converted string, one line per child
+     * @throws IllegalArgumentException
+     *             if the bytes are not a supported encoding, or are truncated
+     *             or malformed
+     */
+    public static ArrayList<String> decode(byte[] bytes) {
+        RecordDecoder decoder = new RecordDecoder(bytes);
+
+        int version = decoder.readVarint();
+        if (version != RecordEncoder.VERSION)
+            throw new IllegalArgumentException("Unsupported encoding version: " + version);
+
+        int lineStyle = decoder.readVarint();
+        if (lineStyle != RecordEncoder.STYLE_HIERARCHY && lineStyle != RecordEncoder.STYLE_INPUT_ORDER)
+            throw new IllegalArgumentException("Unsupported line style: " + lineStyle);
+
+        // every name and line takes at least one byte, so a count larger than
+        // the remaining bytes can't be valid and mustn't be allocated
+        int nameCount = decoder.readCount();
+        String[] names = new String[nameCount];
+        for (int i = 0; i < nameCount; i++) {
+            names[i] = decoder.readString();
+        }
+
+        int lineCount = decoder.readCount();
+        ArrayList<String> lines = new ArrayList<>(lineCount);
+        StringBuilder bldr = new StringBuilder();
+        int previousDepth = -1;
+        for (int i = 0; i < lineCount; i++) {
+            // a line can be at most one level deeper than the line before it
+            int depth = decoder.readVarint();
+            if (depth > previousDepth + 1)
+                throw new IllegalArgumentException("Depth " + depth + " out of range at line " + i);
+            previousDepth = depth;
+
+            int nameRef = decoder.readVarint();
+            int nameIdx = nameRef >>> 1;
+            if (nameIdx >= nameCount)
+                throw new IllegalArgumentException("Name index out of range: " + nameIdx);
+
+            bldr.setLength(0);
+            for (int d = depth; d > 0; d--) {
+                bldr.append('-');
+            }
+            if (depth > 0 || lineStyle == RecordEncoder.STYLE_HIERARCHY)
+                bldr.append(' ');
+            bldr.append(names[nameIdx]);
+            if ((nameRef & 1) != 0) {
+                bldr.append(':').append(decoder.readString());
+            }
+            lines.add(bldr.toString());
+        }
+
+        if (decoder.pos != bytes.length)
+            throw new IllegalArgumentException("Unexpected trailing bytes: " + (bytes.length - decoder.pos));
+
+        return lines;
+    }
+
+    private int readCount() {
+        int count = readVarint();
+        if (count > bytes.length - pos)
+            throw new IllegalArgumentException("Count " + count + " exceeds remaining bytes at byte " + pos);
+        return count;
+    }
+
+    private String readString() {
+        int length = readVarint();
+        if (length > bytes.length - pos)
+            throw new IllegalArgumentException("Truncated input at byte " + pos);
+
+        String string = new String(bytes, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return string;
+    }
+
+    /**
+     * Reads an unsigned varint. The encoder never writes negative values, so
+     * anything that doesn't fit in 31 bits is rejected.
+     */
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (pos >= bytes.length)
+                throw new IllegalArgumentException("Truncated input at byte " + pos);
+
+            byte b = bytes[pos++];
+            // the 5th byte only carries bits 28-31
+            if (shift == 28 && (b & 0xF0) != 0)
+                throw new IllegalArgumentException("Malformed varint at byte " + (pos - 1));
+
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0)
+                    throw new IllegalArgumentException("Negative value at byte " + (pos - 1));
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint at byte " + pos);
+    }
+}
@@ -0,0 +1,176 @@
+package com.frontline.demo.codec;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import com.frontline.demo.domain.Record;
+
+/**
+ * RecordEncoder.java
+ *
+ * Serialises a converted input string into the compact binary wire
+ * format served as "application/octet-stream". Instead of repeating
+ * dashes and field names on every line, each distinct field name is
+ * written once to a string table, and every line is written as a
+ * varint depth followed by a varint index into that table. A value
+ * (the part after the first ':') is written inline after its index.
+ *
+ * @formatter:off
+ * Layout (all integers are unsigned LEB128 varints):
+ *   version
+ *   lineStyle (STYLE_HIERARCHY or STYLE_INPUT_ORDER)
+ *   nameCount, nameCount x (byteLength, UTF-8 bytes)
+ *   lineCount, lineCount x (depth, nameIndex << 1 | hasValue, [byteLength, UTF-8 bytes])
+ * @formatter:on
+ *
+ * The matching decoder is {@link RecordDecoder}.
+ */
+public class RecordEncoder {
+
+    public static final int VERSION = 1;
+
+    // lines as written by Record.getHierarchy(): a space after the dashes,
+    // even at depth 0
+    public static final int STYLE_HIERARCHY = 0;
+    // lines as written by InputConverter.convertInput(): no leading space at
+    // depth 0
+    public static final int STYLE_INPUT_ORDER = 1;
+
+    private final int lineStyle;
+
+    private ArrayList<String> names = new ArrayList<>();
+    private HashMap<String, Integer> nameIndexes = new HashMap<>();
+
+    private ByteArrayOutputStream lines = new ByteArrayOutputStream();
+    private int lineCount = 0;
+
+    private RecordEncoder(int lineStyle) {
+        this.lineStyle = lineStyle;
+    }
+
+    /**
+     * Encodes the hierarchy of a top level Record, walking the tree directly in
+     * the same order as {@link Record#getHierarchy(int)} without building the
+     * dash-prefixed strings.
+     *
+     * @param top
+     * @return the encoded bytes
+     */
+    public static byte[] encode(Record top) {
+        RecordEncoder encoder = new RecordEncoder(STYLE_HIERARCHY);
+        encoder.addRecord(top, 0);
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Encodes a list of dash-prefixed lines, as produced by
+     * InputConverter.convertInput(), keeping the original input order.
+     *
+     * @param lines
+     * @return the encoded bytes
+     */
+    public static byte[] encode(List<String> lines) {
+        RecordEncoder encoder = new RecordEncoder(STYLE_INPUT_ORDER);
+        for (String line : lines) {
+            int depth = 0;
+            while (depth < line.length() && line.charAt(depth) == '-') {
+                depth++;
+            }
+            encoder.addLine(depth, line.substring(depth).trim());
+        }
+        return encoder.toByteArray();
+    }
+
+    /**
+     * Adds the children of a record at the given depth. If a child is the
+     * record's sub-record, the sub-record is written completely before
+     * continuing to the next child.
+     *
+     * @param record
+     * @param depth
+     */
+    private void addRecord(Record record, int depth) {
+        Record subRecord = record.getSubRecord();
+        String subRecordName = null;
+        if (subRecord != null) {
+            subRecordName = subRecord.getName();
+            record.addChild(subRecordName);
+        }
+
+        for (String childName : record.getChildren()) {
+            addLine(depth, childName);
+            if (childName.equals(subRecordName)) {
+                addRecord(subRecord, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Splits a child into its name and optional value and writes the line,
+     * adding the name to the string table the first time it is seen.
+     *
+     * @param depth
+     * @param child
+     */
+    private void addLine(int depth, String child) {
+        String name = child;
+        String value = null;
+        int colonIdx = child.indexOf(':');
+        if (colonIdx >= 0) {
+            name = child.substring(0, colonIdx);
+            value = child.substring(colonIdx + 1);
+        }
+
+        Integer nameIdx = nameIndexes.get(name);
+        if (nameIdx == null) {
+            nameIdx = names.size();
+            nameIndexes.put(name, nameIdx);
+            names.add(name);
+        }
+
+        writeVarint(lines, depth);
+        writeVarint(lines, (nameIdx << 1) | (value != null ? 1 : 0));
+        if (value != null) {
+            writeString(lines, value);
+        }
+        lineCount++;
+    }
+
+    /**
+     * The string table is only complete once every line has been added, so
+     * the lines are buffered and written after it.
+     */
+    private byte[] toByteArray() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(lines.size() + 16 * names.size() + 16);
+        writeVarint(out, VERSION);
+        writeVarint(out, lineStyle);
+
+        writeVarint(out, names.size());
+        for (String name : names) {
+            writeString(out, name);
+        }
+
+        writeVarint(out, lineCount);
+        byte[] lineBytes = lines.toByteArray();
+        out.write(lineBytes, 0, lineBytes.length);
+
+        return out.toByteArray();
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String string) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+}
@@ -1,14 +1,19 @@
 package com.frontline.demo.controller;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 
+import com.frontline.demo.codec.RecordEncoder;
 import com.frontline.demo.converter.InputConverter;
 import com.frontline.demo.domain.Record;
 
@@ -75,4 +80,49 @@ public class ConversionController {
         logger.info("Input conversion completed in " + duration + " ms.");
         return "conversion";
     }
+
+    /**
+     * This method is mapped to the "/conversion" pattern for requests that
+     * accept "application/octet-stream". It performs the same conversion as
+     * conversion(), but returns the result in the compact binary format
+     * written by RecordEncoder instead of a web page. If there is an invalid
+     * input string, the method returns a 400 status with the error message as
+     * a "text/plain" body, so it is never mistaken for an encoded result.
+     * 
+     * @param sortOrder
+     * @param inputString
+     * @return the encoded result of the string conversion, or an error message
+     */
+    @RequestMapping(value = "/conversion", produces = "application/octet-stream")
+    @ResponseBody
+    public ResponseEntity<byte[]> conversionBinary(
+            @RequestParam(value = "sortOrder", required = false, defaultValue = "alpha") String sortOrder,
+            @RequestParam(value = "inputString", required = false, 
+                defaultValue = "(id,created,employee(id,firstname,employeeType(id),lastname),location)") String inputString) {
+        long startTime = System.currentTimeMillis();
+
+        logger.info("Binary request received. Input string: " + inputString + ", Sort order: " + sortOrder);
+
+        // convert the input and encode it, walking the record tree directly
+        // for alphabetical order
+        byte[] encoded = RecordEncoder.encode(new ArrayList<String>());
+        try {
+            if (sortOrder.toLowerCase().equals("input")) {
+                encoded = RecordEncoder.encode(inputConverter.convertInput(inputString));
+            } else if (sortOrder.toLowerCase().equals("alpha")) {
+                encoded = RecordEncoder.encode(inputConverter.convertInputAlpha(inputString));
+            }
+        } catch (InvalidInputException e) {
+            logger.error("An exception occurred:", e);
+            long duration = System.currentTimeMillis() - startTime;
+            logger.error("Input conversion FAILED. Duration: " + duration + " ms.");
+            return ResponseEntity.badRequest().contentType(new MediaType("text", "plain", StandardCharsets.UTF_8))
+                    .body(e.getMessage().getBytes(StandardCharsets.UTF_8));
+        }
+
+        long duration = System.currentTimeMillis() - startTime;
+        logger.info("Input conversion SUCCESSFUL. Encoded " + encoded.length + " bytes.");
+        logger.info("Input conversion completed in " + duration + " ms.");
+        return ResponseEntity.ok(encoded);
+    }
 }
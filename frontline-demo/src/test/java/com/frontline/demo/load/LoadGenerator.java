@@ -0,0 +1,303 @@
+package com.frontline.demo.load;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * LoadGenerator.java
+ *
+ * Drives a running instance of the web service at a fixed request rate
+ * with input strings from a SpecGenerator, and reports throughput,
+ * error rate and latency percentiles.
+ *
+ * The load is open-loop: request i is scheduled for start + i / rate
+ * no matter how long earlier requests take, and its latency is
+ * measured from that scheduled time rather than from when a worker got
+ * around to sending it. A slow server therefore shows up as queueing
+ * in the latency percentiles instead of silently lowering the request
+ * rate (coordinated omission). Latencies are recorded in HdrHistograms
+ * in microseconds. Requests still queued when the run gives up waiting
+ * are recorded as errors with their latency up to that point, so an
+ * overloaded server can't drop its slowest requests from the results.
+ *
+ * Responses are counted as success (2xx), 4xx, or errors (5xx and
+ * I/O failures). The web page returns 200 for an invalid input
+ * string, so invalid strings only show up under 4xx with
+ * load.binary=true, where they get a 400.
+ *
+ * Settings are read from system properties, e.g. with the "load-test"
+ * profile: mvn -Pload-test test-compile exec:java -Dload.rate=200
+ *
+ * @formatter:off
+ *   load.url               service URL (http://localhost:8080/conversion)
+ *   load.rate              requests per second (100)
+ *   load.duration          measured seconds (60)
+ *   load.warmup            seconds sent before measuring starts (10)
+ *   load.connections       concurrent requests (64)
+ *   load.reportInterval    seconds between interval reports (10)
+ *   load.sortOrder         "alpha" or "input" (alpha)
+ *   load.binary            request application/octet-stream, needed to count
+ *                          invalid strings as 4xx (false)
+ *   load.depth             maximum sub-record depth (5)
+ *   load.width             maximum fields per record (8)
+ *   load.valueRatio        share of fields with a ":value" (0.3)
+ *   load.invalidRatio      share of requests sent with an invalid input
+ *                          string (0.05)
+ *   load.pool              number of distinct input strings (1000)
+ *   load.skew              Zipf exponent for repeat requests, 0 = uniform (1.0)
+ *   load.seed              random seed (1)
+ *   load.histogramFile     optional file for the full percentile distribution
+ * @formatter:on
+ */
+public class LoadGenerator {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 30000;
+
+    private final String url;
+    private final String sortOrder;
+    private final boolean binary;
+
+    private final Recorder recorder = new Recorder(3);
+    private final AtomicLong successCount = new AtomicLong();
+    private final AtomicLong clientErrorCount = new AtomicLong();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong scheduledCount = new AtomicLong();
+    private final AtomicLong abandonedCount = new AtomicLong();
+
+    private volatile long measureStartNanos = Long.MAX_VALUE;
+    private boolean stopped = false;
+
+    public LoadGenerator(String url, String sortOrder, boolean binary) {
+        this.url = url;
+        this.sortOrder = sortOrder;
+        this.binary = binary;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = System.getProperty("load.url", "http://localhost:8080/conversion");
+        int rate = Integer.getInteger("load.rate", 100);
+        int duration = Integer.getInteger("load.duration", 60);
+        int warmup = Integer.getInteger("load.warmup", 10);
+        int connections = Integer.getInteger("load.connections", 64);
+        int reportInterval = Integer.getInteger("load.reportInterval", 10);
+        String sortOrder = System.getProperty("load.sortOrder", "alpha");
+        boolean binary = Boolean.getBoolean("load.binary");
+        String histogramFile = System.getProperty("load.histogramFile");
+
+        SpecGenerator generator = new SpecGenerator(Long.getLong("load.seed", 1L), Integer.getInteger("load.depth", 5),
+                Integer.getInteger("load.width", 8), doubleProperty("load.valueRatio", 0.3),
+                doubleProperty("load.invalidRatio", 0.05), Integer.getInteger("load.pool", 1000),
+                doubleProperty("load.skew", 1.0));
+
+        // keep one pooled connection per worker instead of the default of 5
+        if (System.getProperty("http.maxConnections") == null)
+            System.setProperty("http.maxConnections", Integer.toString(connections));
+
+        System.out.println("Sending " + rate + " req/s to " + url + " for " + warmup + " s warmup + " + duration
+                + " s, " + connections + " connections");
+
+        LoadGenerator loadGenerator = new LoadGenerator(url, sortOrder, binary);
+        Histogram total = loadGenerator.run(generator, rate, warmup, duration, connections, reportInterval);
+
+        if (histogramFile != null) {
+            try (PrintStream out = new PrintStream(new FileOutputStream(histogramFile))) {
+                total.outputPercentileDistribution(out, 1000.0);
+            }
+            System.out.println("Percentile distribution (ms) written to " + histogramFile);
+        }
+    }
+
+    /**
+     * Sends requests at the given rate for the warmup and measured periods,
+     * printing a line every report interval, then prints a summary of the
+     * measured period.
+     *
+     * @return the latency histogram of the measured period, in microseconds
+     */
+    public Histogram run(SpecGenerator generator, int rate, int warmupSeconds, int durationSeconds, int connections,
+            int reportIntervalSeconds) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(connections);
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long startNanos = System.nanoTime();
+        measureStartNanos = startNanos + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long endNanos = measureStartNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long reportIntervalNanos = TimeUnit.SECONDS.toNanos(reportIntervalSeconds);
+        long nextReportNanos = measureStartNanos + reportIntervalNanos;
+
+        Histogram total = new Histogram(3);
+        Histogram interval = null;
+        long reportedErrors = 0;
+
+        // schedule each request at its intended time; the workers queue up if
+        // the server can't keep pace, which is counted in the latency
+        for (long i = 0;; i++) {
+            long intendedNanos = startNanos + i * intervalNanos;
+            if (intendedNanos >= endNanos)
+                break;
+
+            while (System.nanoTime() < intendedNanos) {
+                LockSupport.parkNanos(intendedNanos - System.nanoTime());
+            }
+
+            if (intendedNanos >= measureStartNanos)
+                scheduledCount.incrementAndGet();
+            workers.execute(new Request(generator.next(), intendedNanos));
+
+            if (intendedNanos >= nextReportNanos) {
+                interval = recorder.getIntervalHistogram(interval);
+                total.add(interval);
+                long errors = errorCount.get();
+                printInterval(interval, intendedNanos, reportIntervalSeconds, errors - reportedErrors);
+                reportedErrors = errors;
+                nextReportNanos += reportIntervalNanos;
+            }
+        }
+
+        workers.shutdown();
+        List<Runnable> unsent = null;
+        if (!workers.awaitTermination(READ_TIMEOUT_MS + CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS))
+            unsent = workers.shutdownNow();
+        stop(unsent);
+        long elapsedNanos = System.nanoTime() - measureStartNanos;
+
+        total.add(recorder.getIntervalHistogram(interval));
+        printSummary(total, elapsedNanos);
+        return total;
+    }
+
+    /**
+     * Records the requests that were never sent as errors, with their latency
+     * up to now, then stops any request still in flight from being recorded
+     * so the summary doesn't change while it is printed.
+     */
+    private synchronized void stop(List<Runnable> unsent) {
+        if (unsent != null) {
+            long nowNanos = System.nanoTime();
+            for (Runnable runnable : unsent) {
+                long intendedNanos = ((Request) runnable).intendedNanos;
+                if (intendedNanos < measureStartNanos)
+                    continue;
+
+                recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(nowNanos - intendedNanos));
+                errorCount.incrementAndGet();
+                abandonedCount.incrementAndGet();
+            }
+        }
+        stopped = true;
+    }
+
+    /**
+     * Sends one request and records its latency from the intended send time.
+     * Requests scheduled during the warmup, or finishing after the run has
+     * stopped, are not recorded.
+     */
+    private void send(String inputString, long intendedNanos) {
+        int status = -1;
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(url + "?sortOrder=" + sortOrder
+                    + "&inputString=" + URLEncoder.encode(inputString, "UTF-8")).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+            connection.setReadTimeout(READ_TIMEOUT_MS);
+            if (binary)
+                connection.setRequestProperty("Accept", "application/octet-stream");
+
+            status = connection.getResponseCode();
+            // read the body fully so the connection can be reused
+            InputStream body = (status < 400) ? connection.getInputStream() : connection.getErrorStream();
+            if (body != null) {
+                byte[] buffer = new byte[8192];
+                while (body.read(buffer) != -1) {
+                }
+                body.close();
+            }
+        } catch (IOException e) {
+            status = -1;
+        }
+
+        long endNanos = System.nanoTime();
+        if (intendedNanos < measureStartNanos)
+            return;
+
+        synchronized (this) {
+            if (stopped)
+                return;
+
+            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(endNanos - intendedNanos));
+            if (status >= 200 && status < 300)
+                successCount.incrementAndGet();
+            else if (status >= 400 && status < 500)
+                clientErrorCount.incrementAndGet();
+            else
+                errorCount.incrementAndGet();
+        }
+    }
+
+    private void printInterval(Histogram interval, long nowNanos, int reportIntervalSeconds, long errors) {
+        System.out.println(String.format("[%6.1f s] %8.1f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  errors %d",
+                (nowNanos - measureStartNanos) / 1e9, (double) interval.getTotalCount() / reportIntervalSeconds,
+                interval.getValueAtPercentile(50) / 1000.0, interval.getValueAtPercentile(99) / 1000.0,
+                interval.getMaxValue() / 1000.0, errors));
+    }
+
+    private void printSummary(Histogram total, long elapsedNanos) {
+        long count = total.getTotalCount();
+        long scheduled = scheduledCount.get();
+        System.out.println();
+        System.out.println(String.format("Scheduled:    %d", scheduled));
+        System.out.println(String.format("Requests:     %d in %.1f s", count, elapsedNanos / 1e9));
+        System.out.println(String.format("Not completed: %d (%d never sent, recorded as errors; %d in flight, not recorded)",
+                scheduled - count + abandonedCount.get(), abandonedCount.get(), scheduled - count));
+        System.out.println(String.format("Throughput:   %.1f req/s completed",
+                (count - abandonedCount.get()) / (elapsedNanos / 1e9)));
+        System.out.println(String.format("Success:      %d", successCount.get()));
+        System.out.println(String.format("4xx:          %d", clientErrorCount.get()));
+        System.out.println(String.format("Errors:       %d (%.3f%%)", errorCount.get(),
+                (count > 0) ? 100.0 * errorCount.get() / count : 0.0));
+        System.out.println("Latency (ms, from intended send time):");
+        for (String percentile : new String[] { "50", "90", "99", "99.9", "99.99" }) {
+            System.out.println(String.format("  p%-6s %10.2f", percentile,
+                    total.getValueAtPercentile(Double.parseDouble(percentile)) / 1000.0));
+        }
+        System.out.println(String.format("  max     %10.2f", total.getMaxValue() / 1000.0));
+    }
+
+    /**
+     * A request scheduled for its intended send time, kept as a class so
+     * requests that are never sent can be recorded
+     */
+    private class Request implements Runnable {
+        private final String inputString;
+        private final long intendedNanos;
+
+        Request(String inputString, long intendedNanos) {
+            this.inputString = inputString;
+            this.intendedNanos = intendedNanos;
+        }
+
+        @Override
+        public void run() {
+            send(inputString, intendedNanos);
+        }
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return (value != null) ? Double.parseDouble(value) : defaultValue;
+    }
+}
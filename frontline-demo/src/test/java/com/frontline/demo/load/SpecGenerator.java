@@ -0,0 +1,200 @@
+package com.frontline.demo.load;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * SpecGenerator.java
+ *
+ * Synthesises input strings for load and benchmark runs. Each record
+ * has a random number of fields (up to the maximum width), a share of
+ * which carry ":value" suffixes, and at most one sub-record, nested up
+ * to the maximum depth.
+ *
+ * To mimic repeat requests, next() draws from a fixed pool of valid
+ * strings using a Zipf distribution: a skew of 0 is uniform, and
+ * larger values send more of the traffic to the first few "hot"
+ * strings. A share of the returned strings are then made invalid with
+ * one of the mistakes covered by ConversionTests. This is decided for
+ * each call, so the invalid share doesn't depend on which strings are
+ * hot.
+ */
+public class SpecGenerator {
+
+    // record names may only contain letters, field and record names are kept
+    // apart so that a field is never mistaken for a sub-record
+    private static final String[] FIELD_NAMES = { "id", "name", "firstname", "lastname", "created", "updated",
+            "status", "type", "code", "email", "phone", "title", "description", "startdate", "enddate", "amount" };
+    private static final String[] RECORD_NAMES = { "employee", "location", "department", "employeeType", "manager",
+            "address", "position", "school", "district", "contact" };
+
+    private final Random random;
+    private final int maxDepth;
+    private final int maxWidth;
+    private final double valueRatio;
+    private final double invalidRatio;
+
+    private final String[] pool;
+    private final double[] cumulativeWeights;
+
+    /**
+     * @param seed
+     *            seed for the random source, so runs can be repeated
+     * @param maxDepth
+     *            maximum number of nested sub-records
+     * @param maxWidth
+     *            maximum number of fields per record, at least 1
+     * @param valueRatio
+     *            share of fields with a ":value" suffix
+     * @param invalidRatio
+     *            share of next() calls that return an invalid string
+     * @param poolSize
+     *            number of distinct strings next() draws from
+     * @param skew
+     *            Zipf exponent used when drawing from the pool
+     */
+    public SpecGenerator(long seed, int maxDepth, int maxWidth, double valueRatio, double invalidRatio, int poolSize,
+            double skew) {
+        if (maxDepth < 0 || maxWidth < 1 || poolSize < 1)
+            throw new IllegalArgumentException("maxDepth must be >= 0, maxWidth and poolSize must be >= 1");
+
+        this.random = new Random(seed);
+        this.maxDepth = maxDepth;
+        this.maxWidth = maxWidth;
+        this.valueRatio = valueRatio;
+        this.invalidRatio = invalidRatio;
+
+        this.pool = new String[poolSize];
+        this.cumulativeWeights = new double[poolSize];
+        double total = 0;
+        for (int i = 0; i < poolSize; i++) {
+            pool[i] = randomSpec();
+            total += 1 / Math.pow(i + 1, skew);
+            cumulativeWeights[i] = total;
+        }
+        for (int i = 0; i < poolSize; i++) {
+            cumulativeWeights[i] /= total;
+        }
+    }
+
+    /**
+     * Draws the next input string from the pool, and breaks it if this call
+     * falls in the invalid share. Not thread-safe.
+     *
+     * @return an input string
+     */
+    public String next() {
+        int idx = Arrays.binarySearch(cumulativeWeights, random.nextDouble());
+        if (idx < 0)
+            idx = -idx - 1;
+        String spec = pool[Math.min(idx, pool.length - 1)];
+        return (random.nextDouble() < invalidRatio) ? breakSpec(spec) : spec;
+    }
+
+    /**
+     * Builds a valid input string with exactly the given depth and width.
+     * Fields come first in each record, followed by the sub-record.
+     *
+     * @param depth
+     * @param width
+     * @return a valid input string
+     */
+    public String generate(int depth, int width) {
+        StringBuilder bldr = new StringBuilder("(");
+        for (int level = 0; level < depth; level++) {
+            appendFields(bldr, width);
+            bldr.append(',').append(recordName(level)).append('(');
+        }
+        appendFields(bldr, width);
+        for (int level = 0; level <= depth; level++) {
+            bldr.append(')');
+        }
+        return bldr.toString();
+    }
+
+    /**
+     * Builds a valid string with a random depth and random widths, placing
+     * each sub-record at a random position among the fields.
+     */
+    private String randomSpec() {
+        int depth = random.nextInt(maxDepth + 1);
+        StringBuilder bldr = new StringBuilder();
+        for (int level = depth; level >= 0; level--) {
+            // build from the inner-most record outward
+            StringBuilder record = new StringBuilder("(");
+            int width = 1 + random.nextInt(maxWidth);
+            int subRecordIdx = (level < depth) ? random.nextInt(width + 1) : -1;
+            int offset = random.nextInt(FIELD_NAMES.length);
+            for (int i = 0; i <= width; i++) {
+                if (i == subRecordIdx) {
+                    record.append(recordName(level)).append(bldr).append(',');
+                } else if (i < width) {
+                    appendField(record, offset + i, i >= FIELD_NAMES.length);
+                    record.append(',');
+                }
+            }
+            record.setCharAt(record.length() - 1, ')');
+            bldr = record;
+        }
+
+        return bldr.toString();
+    }
+
+    /**
+     * Makes a valid string invalid with one of the mistakes in
+     * ConversionTests.invalidInputTest()
+     */
+    private String breakSpec(String spec) {
+        switch (random.nextInt(4)) {
+        case 0: // missing ultimate right parenthesis
+            return spec.substring(0, spec.length() - 1);
+        case 1: // ends with comma
+            return spec.substring(0, spec.length() - 1) + ",)";
+        case 2: // begins with comma
+            return "(," + spec.substring(1);
+        default: // record with empty sub-record
+            return spec.substring(0, spec.length() - 1) + ",employee())";
+        }
+    }
+
+    private void appendFields(StringBuilder bldr, int width) {
+        int offset = random.nextInt(FIELD_NAMES.length);
+        for (int i = 0; i < width; i++) {
+            if (i > 0)
+                bldr.append(',');
+            appendField(bldr, offset + i, i >= FIELD_NAMES.length);
+        }
+    }
+
+    /**
+     * Appends a field name, with a letter suffix once the names run out so
+     * fields in the same record stay distinct, and possibly a value
+     */
+    private void appendField(StringBuilder bldr, int nameIdx, boolean suffix) {
+        bldr.append(FIELD_NAMES[nameIdx % FIELD_NAMES.length]);
+        if (suffix)
+            bldr.append(letters(nameIdx / FIELD_NAMES.length));
+        if (random.nextDouble() < valueRatio)
+            bldr.append(':').append(random.nextInt(1000000));
+    }
+
+    /**
+     * Record names must be unique along the nesting, so a letter suffix is
+     * added once the names run out
+     */
+    private static String recordName(int level) {
+        String name = RECORD_NAMES[level % RECORD_NAMES.length];
+        if (level >= RECORD_NAMES.length)
+            name += letters(level / RECORD_NAMES.length);
+        return name;
+    }
+
+    private static String letters(int n) {
+        StringBuilder bldr = new StringBuilder();
+        do {
+            bldr.insert(0, (char) ('a' + n % 26));
+            n /= 26;
+        } while (n > 0);
+        return bldr.toString();
+    }
+}
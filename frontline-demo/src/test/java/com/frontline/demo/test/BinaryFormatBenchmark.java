@@ -0,0 +1,94 @@
+package com.frontline.demo.test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.frontline.demo.codec.RecordDecoder;
+import com.frontline.demo.codec.RecordEncoder;
+import com.frontline.demo.converter.InputConverter;
+import com.frontline.demo.domain.Record;
+import com.frontline.demo.load.SpecGenerator;
+
+/**
+ * BinaryFormatBenchmark.java
+ *
+ * Compares the payload size and encode/decode time of the binary wire
+ * format against the dash-prefixed text output for large input
+ * strings. This is not run as part of the unit tests; run it with
+ * "Run As -> Java Application" or from the command line after
+ * "mvn test-compile".
+ */
+public class BinaryFormatBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        InputConverter converter = new InputConverter();
+        SpecGenerator generator = new SpecGenerator(1L, 0, 1, 0.5, 0.0, 1, 0.0);
+        // larger inputs overflow the stack in the validation regex
+        int[][] shapes = { { 5, 10 }, { 10, 40 }, { 20, 20 }, { 30, 10 } };
+
+        System.out.println(String.format("%-12s %10s %10s %12s %12s %12s %12s", "depth/width", "text B",
+                "binary B", "text enc us", "bin enc us", "text dec us", "bin dec us"));
+
+        for (int[] shape : shapes) {
+            Record record = converter.convertInputAlpha(generator.generate(shape[0], shape[1]));
+
+            byte[] text = encodeText(record);
+            byte[] binary = RecordEncoder.encode(record);
+            if (!decodeText(text).equals(RecordDecoder.decode(binary)))
+                throw new IllegalStateException("Text and binary results differ");
+
+            for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                encodeText(record);
+                RecordEncoder.encode(record);
+                decodeText(text);
+                RecordDecoder.decode(binary);
+            }
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+                encodeText(record);
+            long textEncode = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+                RecordEncoder.encode(record);
+            long binaryEncode = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+                decodeText(text);
+            long textDecode = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+                RecordDecoder.decode(binary);
+            long binaryDecode = System.nanoTime() - start;
+
+            System.out.println(String.format("%-12s %10d %10d %12.1f %12.1f %12.1f %12.1f", shape[0] + "/" + shape[1],
+                    text.length, binary.length, micros(textEncode), micros(binaryEncode), micros(textDecode),
+                    micros(binaryDecode)));
+        }
+    }
+
+    /**
+     * The current text output: the record's hierarchy, one line per child.
+     */
+    private static byte[] encodeText(Record record) {
+        return String.join("\n", record.getHierarchy(0)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * What callers do today: split the text back into lines.
+     */
+    private static ArrayList<String> decodeText(byte[] text) {
+        return new ArrayList<>(Arrays.asList(new String(text, StandardCharsets.UTF_8).split("\n")));
+    }
+
+    private static double micros(long totalNanos) {
+        return totalNanos / 1000.0 / ITERATIONS;
+    }
+}
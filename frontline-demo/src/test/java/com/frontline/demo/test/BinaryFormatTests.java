@@ -0,0 +1,177 @@
+package com.frontline.demo.test;
+
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.frontline.demo.codec.RecordDecoder;
+import com.frontline.demo.codec.RecordEncoder;
+import com.frontline.demo.controller.InvalidInputException;
+import com.frontline.demo.converter.InputConverter;
+import com.frontline.demo.domain.Record;
+
+public class BinaryFormatTests {
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private InputConverter converter = new InputConverter();
+
+    /**
+     * Testing that encoding a Record and decoding the result produces the same
+     * lines as the Record's hierarchy.
+     *
+     * @throws InvalidInputException
+     */
+    @Test
+    public void alphaRoundTripTest() throws InvalidInputException {
+        String[] inputStrings = { // @formatter:off
+                "(id,created,employee(id,firstname,employeeType(id),lastname),location)",
+                "(employee(employeeType(id),id,firstname,lastname),id,created,location)",
+                "(employee)",
+                "(employee(employeeType(id)))",
+                "(id:123456,created:20170530,employee(id:4444,firstname:derek,employeeType(id:404),lastname:dupuis),location:nashua)"
+        }; // @formatter:on
+
+        for (String inputString : inputStrings) {
+            Record record = converter.convertInputAlpha(inputString);
+            byte[] encoded = RecordEncoder.encode(record);
+            assertEquals(record.getHierarchy(0), RecordDecoder.decode(encoded));
+        }
+    }
+
+    /**
+     * Testing that encoding the lines produced by the input-order conversion
+     * and decoding the result produces the same lines, in the same order.
+     *
+     * @throws InvalidInputException
+     */
+    @Test
+    public void inputOrderRoundTripTest() throws InvalidInputException {
+        String inputString = "(id,created,employee(id:4444,firstname,employeeType(id),lastname),location)";
+        ArrayList<String> lines = converter.convertInput(inputString);
+
+        assertEquals(lines, RecordDecoder.decode(RecordEncoder.encode(lines)));
+    }
+
+    /**
+     * Testing that repeated field names are written to the string table only
+     * once, so the binary payload is smaller than the text lines.
+     *
+     * @throws InvalidInputException
+     */
+    @Test
+    public void stringTableTest() throws InvalidInputException {
+        String inputString = "(id,name,a(id,name,b(id,name,c(id,name,d(id,name)))))";
+        Record record = converter.convertInputAlpha(inputString);
+
+        byte[] encoded = RecordEncoder.encode(record);
+        String text = String.join("\n", record.getHierarchy(0));
+        byte[] idBytes = "id".getBytes(StandardCharsets.UTF_8);
+
+        int idCount = 0;
+        for (int i = 0; i <= encoded.length - idBytes.length; i++) {
+            if (encoded[i] == idBytes[0] && encoded[i + 1] == idBytes[1])
+                idCount++;
+        }
+        assertEquals(1, idCount);
+        assertTrue(encoded.length < text.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    /**
+     * Testing the exception thrown when decoding an unsupported version
+     */
+    @Test
+    public void unsupportedVersionTest() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Unsupported encoding version: 2");
+        RecordDecoder.decode(new byte[] { 2, 0, 0 });
+    }
+
+    /**
+     * Testing the exception thrown when decoding an unknown line style
+     */
+    @Test
+    public void unsupportedLineStyleTest() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Unsupported line style: 2");
+        RecordDecoder.decode(new byte[] { 1, 2, 0, 0 });
+    }
+
+    /**
+     * Testing the exception thrown when decoding truncated bytes
+     *
+     * @throws InvalidInputException
+     */
+    @Test
+    public void truncatedInputTest() throws InvalidInputException {
+        byte[] encoded = RecordEncoder.encode(converter.convertInputAlpha("(id,employee(firstname))"));
+        byte[] truncated = new byte[encoded.length - 1];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Truncated input");
+        RecordDecoder.decode(truncated);
+    }
+
+    /**
+     * Testing that a count larger than the remaining bytes is rejected before
+     * anything is allocated
+     */
+    @Test
+    public void hugeCountTest() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("exceeds remaining bytes");
+        // version 1, line style 0, nameCount = 0x7FFFFFFF
+        RecordDecoder.decode(new byte[] { 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07 });
+    }
+
+    /**
+     * Testing that a 5-byte varint with bit 31 set is rejected as negative
+     */
+    @Test
+    public void negativeCountTest() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Negative value");
+        // version 1, line style 0, nameCount = -1
+        RecordDecoder.decode(new byte[] { 1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F });
+    }
+
+    /**
+     * Testing that a negative string length is rejected
+     */
+    @Test
+    public void negativeStringLengthTest() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Negative value");
+        // version 1, line style 0, nameCount = 1, name length = -2
+        RecordDecoder.decode(new byte[] { 1, 0, 1, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F });
+    }
+
+    /**
+     * Testing that a 5th varint byte with bits above 31 is rejected
+     */
+    @Test
+    public void overlongVarintTest() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Malformed varint");
+        RecordDecoder.decode(new byte[] { 1, 0, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x10 });
+    }
+
+    /**
+     * Testing that a line more than one level deeper than the line before it
+     * is rejected, which also bounds the number of dashes written
+     */
+    @Test
+    public void depthOutOfRangeTest() {
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("Depth 1000000 out of range at line 0");
+        // version 1, line style 0, one name "a", one line at depth 1000000
+        RecordDecoder.decode(new byte[] { 1, 0, 1, 1, 'a', 1, (byte) 0xC0, (byte) 0x84, 0x3D, 0 });
+    }
+}
@@ -0,0 +1,103 @@
+package com.frontline.demo.test;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+
+import org.junit.Test;
+
+import com.frontline.demo.controller.InvalidInputException;
+import com.frontline.demo.converter.InputConverter;
+import com.frontline.demo.domain.Record;
+import com.frontline.demo.load.SpecGenerator;
+
+public class SpecGeneratorTests {
+
+    private InputConverter converter = new InputConverter();
+
+    /**
+     * Testing that generated input strings are valid and can be converted in
+     * both sort orders when the invalid ratio is 0.
+     *
+     * @throws InvalidInputException
+     */
+    @Test
+    public void validSpecTest() throws InvalidInputException {
+        SpecGenerator generator = new SpecGenerator(1L, 6, 20, 0.3, 0.0, 200, 0.0);
+
+        for (int i = 0; i < 500; i++) {
+            String inputString = generator.next();
+            assertTrue(inputString, converter.validInput(inputString));
+            assertNotNull(converter.convertInputAlpha(inputString));
+            assertNotNull(converter.convertInput(inputString));
+        }
+    }
+
+    /**
+     * Testing that every generated input string is invalid when the invalid
+     * ratio is 1.
+     */
+    @Test
+    public void invalidSpecTest() {
+        SpecGenerator generator = new SpecGenerator(1L, 6, 20, 0.3, 1.0, 200, 0.0);
+
+        for (int i = 0; i < 500; i++) {
+            String inputString = generator.next();
+            assertFalse(inputString, converter.validInput(inputString));
+        }
+    }
+
+    /**
+     * Testing that the invalid share applies to requests rather than to the
+     * pool, so it holds even when a few hot strings get most of the traffic.
+     */
+    @Test
+    public void invalidRatioWithSkewTest() {
+        for (long seed = 1; seed <= 4; seed++) {
+            SpecGenerator generator = new SpecGenerator(seed, 5, 8, 0.3, 0.05, 1000, 1.0);
+
+            int invalid = 0;
+            for (int i = 0; i < 10000; i++) {
+                if (!converter.validInput(generator.next()))
+                    invalid++;
+            }
+
+            // 5% of 10000 is 500, with a standard deviation of about 22
+            assertEquals("seed " + seed, 500, invalid, 100);
+        }
+    }
+
+    /**
+     * Testing that a fixed shape produces one line per field and sub-record.
+     *
+     * @throws InvalidInputException
+     */
+    @Test
+    public void fixedShapeTest() throws InvalidInputException {
+        SpecGenerator generator = new SpecGenerator(1L, 0, 1, 0.5, 0.0, 1, 0.0);
+
+        Record record = converter.convertInputAlpha(generator.generate(3, 20));
+
+        assertEquals(3 * 20 + 3 + 20, record.getHierarchy(0).size());
+    }
+
+    /**
+     * Testing that the same seed produces the same input strings, and that a
+     * skewed pool sends most requests to a few strings.
+     */
+    @Test
+    public void seedAndSkewTest() {
+        SpecGenerator generator1 = new SpecGenerator(42L, 4, 8, 0.3, 0.1, 100, 1.5);
+        SpecGenerator generator2 = new SpecGenerator(42L, 4, 8, 0.3, 0.1, 100, 1.5);
+
+        HashMap<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            String inputString = generator1.next();
+            assertEquals(inputString, generator2.next());
+            counts.merge(inputString, 1, Integer::sum);
+        }
+
+        // with an exponent of 1.5 the hottest string gets roughly 40%
+        assertTrue(counts.values().stream().anyMatch(count -> count > 3000));
+    }
+}